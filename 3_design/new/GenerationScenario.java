@@ -0,0 +1,166 @@
+public record GenerationScenario(List<EnterpriseScenario> enterprises,
+                                 List<CityScenario> cities,
+                                 SpeedRange speedKmH,
+                                 TimeWindow trackDates,
+                                 DriverProfile drivers) {
+
+    public record EnterpriseScenario(Integer enterpriseId, int vehicles, int tracksPerVehicle) {
+    }
+
+    public record CityScenario(String name, Double weight, List<Hotspot> hotspots) {
+        public CityScenario {
+            weight = weight == null ? 1 : weight;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Вес города должен быть больше 0");
+            }
+        }
+    }
+
+    public record Hotspot(Double lat, Double lon, Double radiusKm, Double weight) {
+        public Hotspot {
+            if (lat == null || lon == null) {
+                throw new IllegalArgumentException("Для точки притяжения не заданы координаты");
+            }
+            if (radiusKm == null || radiusKm <= 0) {
+                throw new IllegalArgumentException("Радиус точки притяжения должен быть больше 0");
+            }
+            weight = weight == null ? 1 : weight;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Вес точки притяжения должен быть больше 0");
+            }
+        }
+    }
+
+    public record SpeedRange(int min, int max) {
+    }
+
+    public record TimeWindow(LocalDateTime from, LocalDateTime to) {
+    }
+
+    public static GenerationScenario load(Path path) {
+        ObjectMapper objectMapper = path.toString().endsWith(".json")
+                ? new ObjectMapper()
+                : new ObjectMapper(new YAMLFactory());
+        try {
+            return objectMapper.findAndRegisterModules().readValue(path.toFile(), GenerationScenario.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public TrackProfile toTrackProfile() {
+        List<TrackArea> areas = cities == null || cities.isEmpty()
+                ? Arrays.stream(City.values()).map(c -> TrackArea.ofCity(c, 1)).toList()
+                : cities.stream()
+                        .map(GenerationScenario::toTrackAreas)
+                        .flatMap(Collection::stream)
+                        .toList();
+        SpeedRange speed = speedKmH == null
+                ? new SpeedRange(TrackProfile.MIN_SPEED_KM_H, TrackProfile.MAX_SPEED_KM_H)
+                : speedKmH;
+        TimeWindow dates = trackDates == null
+                ? new TimeWindow(DateUtil.MIN_DATE_OF_TRACK_2000, DateUtil.MAX_DATE_OF_TRACK_2020)
+                : trackDates;
+        return new TrackProfile(areas, speed.min(), speed.max(), dates.from(), dates.to());
+    }
+
+    private static List<TrackArea> toTrackAreas(CityScenario cityScenario) {
+        City city = City.fromName(cityScenario.name());
+        List<Hotspot> hotspots = cityScenario.hotspots() == null ? List.of() : cityScenario.hotspots();
+        if (hotspots.isEmpty()) {
+            return List.of(TrackArea.ofCity(city, cityScenario.weight()));
+        }
+        double totalWeight = hotspots.stream().mapToDouble(Hotspot::weight).sum();
+        return hotspots.stream()
+                .map(h -> TrackArea.around(h.lat(), h.lon(), h.radiusKm(), cityScenario.weight() * h.weight() / totalWeight))
+                .toList();
+    }
+}
+
+public record ExecutionPlan(TrackProfile trackProfile, DriverProfile driverProfile, List<PlanShard> shards) {
+
+    public record PlanShard(int index, List<PlanTask> tasks) {
+        public long getWeight() {
+            return tasks.stream().mapToLong(PlanTask::getWeight).sum();
+        }
+    }
+
+    public record PlanTask(Integer enterpriseId, int vehicles, int tracksPerVehicle) {
+        public long getWeight() {
+            return (long) vehicles * (tracksPerVehicle + 1);
+        }
+    }
+}
+
+public class ScenarioPlanner {
+    private static final int MAX_VEHICLES_PER_TASK = 50;
+
+    public static ExecutionPlan plan(GenerationScenario scenario, int shardCount) {
+        List<ExecutionPlan.PlanTask> tasks = scenario.enterprises().stream()
+                .map(ScenarioPlanner::splitEnterprise)
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparingLong(ExecutionPlan.PlanTask::getWeight).reversed()
+                        .thenComparing(ExecutionPlan.PlanTask::enterpriseId))
+                .toList();
+
+        List<List<ExecutionPlan.PlanTask>> shardTasks = IntStream.range(0, shardCount)
+                .<List<ExecutionPlan.PlanTask>>mapToObj(i -> new ArrayList<>())
+                .toList();
+        long[] shardWeights = new long[shardCount];
+        tasks.forEach(task -> {
+            int lightest = IntStream.range(0, shardCount)
+                    .boxed()
+                    .min(Comparator.comparingLong(i -> shardWeights[i]))
+                    .orElseThrow();
+            shardTasks.get(lightest).add(task);
+            shardWeights[lightest] += task.getWeight();
+        });
+
+        List<ExecutionPlan.PlanShard> shards = IntStream.range(0, shardCount)
+                .mapToObj(i -> new ExecutionPlan.PlanShard(i, List.copyOf(shardTasks.get(i))))
+                .toList();
+        DriverProfile driverProfile = scenario.drivers() == null ? DriverProfile.DEFAULT : scenario.drivers();
+        return new ExecutionPlan(scenario.toTrackProfile(), driverProfile, shards);
+    }
+
+    private static List<ExecutionPlan.PlanTask> splitEnterprise(GenerationScenario.EnterpriseScenario enterprise) {
+        int numTasks = (enterprise.vehicles() + MAX_VEHICLES_PER_TASK - 1) / MAX_VEHICLES_PER_TASK;
+        return IntStream.range(0, numTasks)
+                .mapToObj(i -> new ExecutionPlan.PlanTask(enterprise.enterpriseId(),
+                        Math.min(MAX_VEHICLES_PER_TASK, enterprise.vehicles() - i * MAX_VEHICLES_PER_TASK),
+                        enterprise.tracksPerVehicle()))
+                .toList();
+    }
+}
+
+@Slf4j
+@Service
+public class ScenarioRunnerService {
+
+    @Autowired VehicleGenerator vehicleGenerator;
+    @Autowired InstantTrackGenerator instantTrackGenerator;
+
+    public void run(Path scenarioPath, int shardCount, List<Integer> shardIndexes, int threads) {
+        ExecutionPlan plan = ScenarioPlanner.plan(GenerationScenario.load(scenarioPath), shardCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> futures = shardIndexes.stream()
+                    .map(i -> plan.shards().get(i))
+                    .map(ExecutionPlan.PlanShard::tasks)
+                    .flatMap(Collection::stream)
+                    .map(task -> CompletableFuture.runAsync(() -> runTask(task, plan), executor))
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+        log.info("Shards {} of {} are generated", shardIndexes, shardCount);
+    }
+
+    private void runTask(ExecutionPlan.PlanTask task, ExecutionPlan plan) {
+        List<Vehicle> vehicles = vehicleGenerator.generateVehiclesForEnterprise(task.enterpriseId(), task.vehicles(), plan.driverProfile());
+        vehicles.forEach(v -> instantTrackGenerator.generateTracks(v, plan.trackProfile(), task.tracksPerVehicle()));
+        log.info("{} vehicles with {} tracks each are generated for enterprise {}",
+                task.vehicles(), task.tracksPerVehicle(), task.enterpriseId());
+    }
+}
@@ -0,0 +1,254 @@
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "generation_shard",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"job_id", "enterprise_id", "min_vehicle_id"}))
+public class GenerationShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    private String jobId;
+    private Integer enterpriseId;
+    private Integer minVehicleId;
+    private Integer maxVehicleId;
+    private String cityName;
+    private int tracksPerVehicle;
+    @Enumerated(EnumType.STRING)
+    private ShardStatus status;
+    private String owner;
+    @Column(columnDefinition = "timestamptz")
+    private Instant leaseUntil;
+    private int attempts;
+
+    public GenerationShard(String jobId, Integer enterpriseId, Integer minVehicleId, Integer maxVehicleId,
+                           String cityName, int tracksPerVehicle) {
+        this.jobId = jobId;
+        this.enterpriseId = enterpriseId;
+        this.minVehicleId = minVehicleId;
+        this.maxVehicleId = maxVehicleId;
+        this.cityName = cityName;
+        this.tracksPerVehicle = tracksPerVehicle;
+        this.status = ShardStatus.PENDING;
+    }
+
+    public String getGenerationKeyPrefix() {
+        return String.format("%s:%d", jobId, id);
+    }
+
+    public enum ShardStatus {
+        PENDING,
+        IN_PROGRESS,
+        DONE,
+        FAILED
+    }
+}
+
+public interface GenerationShardRepository extends JpaRepository<GenerationShard, Integer> {
+
+    boolean existsByJobId(String jobId);
+
+    boolean existsByJobIdAndStatusIn(String jobId, Collection<GenerationShard.ShardStatus> statuses);
+
+    @Query(value = """
+            SELECT * FROM generation_shard
+            WHERE job_id = :jobId
+              AND (status = 'PENDING' OR (status = 'IN_PROGRESS' AND lease_until < now()))
+            ORDER BY id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    Optional<GenerationShard> findClaimable(@Param("jobId") String jobId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE generation_shard
+            SET status = 'IN_PROGRESS', owner = :owner, lease_until = now() + make_interval(secs => :leaseSec),
+                attempts = attempts + 1
+            WHERE id = :id""", nativeQuery = true)
+    int claim(@Param("id") Integer id, @Param("owner") String owner, @Param("leaseSec") long leaseSec);
+
+    @Modifying
+    @Query("UPDATE GenerationShard s SET s.status = 'FAILED', s.owner = null, s.leaseUntil = null WHERE s.id = :id")
+    int fail(@Param("id") Integer id);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE generation_shard
+            SET lease_until = now() + make_interval(secs => :leaseSec)
+            WHERE id = :id AND owner = :owner AND status = 'IN_PROGRESS'""", nativeQuery = true)
+    int extendLease(@Param("id") Integer id, @Param("owner") String owner, @Param("leaseSec") long leaseSec);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE GenerationShard s SET s.status = 'PENDING', s.owner = null, s.leaseUntil = null WHERE s.id = :id AND s.owner = :owner AND s.status = 'IN_PROGRESS'")
+    int release(@Param("id") Integer id, @Param("owner") String owner);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE GenerationShard s SET s.status = 'DONE', s.leaseUntil = null WHERE s.id = :id AND s.owner = :owner")
+    int complete(@Param("id") Integer id, @Param("owner") String owner);
+}
+
+public interface ShardCoordinator {
+    void createJob(String jobId, List<Integer> enterpriseIds, String cityName, int tracksPerVehicle, int vehiclesPerShard);
+}
+
+@Slf4j
+@Service
+public class ShardCoordinatorService implements ShardCoordinator {
+
+    @Autowired GenerationShardRepository generationShardRepository;
+    @Autowired VehicleRepository vehicleRepository;
+
+    @Override
+    @Transactional
+    public void createJob(String jobId, List<Integer> enterpriseIds, String cityName, int tracksPerVehicle, int vehiclesPerShard) {
+        if (vehiclesPerShard <= 0) {
+            throw new IllegalArgumentException("Количество авто в шарде должно быть больше 0");
+        }
+        if (tracksPerVehicle <= 0) {
+            throw new IllegalArgumentException("Количество треков для авто должно быть больше 0");
+        }
+        String validCityName = City.fromName(cityName).getName();
+        if (generationShardRepository.existsByJobId(jobId)) {
+            log.info("Job {} already exists", jobId);
+            return;
+        }
+        List<GenerationShard> shards = enterpriseIds.stream()
+                .map(e -> splitEnterprise(jobId, e, validCityName, tracksPerVehicle, vehiclesPerShard))
+                .flatMap(Collection::stream)
+                .toList();
+        generationShardRepository.saveAll(shards);
+        log.info("Job {} is split into {} shards", jobId, shards.size());
+    }
+
+    private List<GenerationShard> splitEnterprise(String jobId, Integer enterpriseId, String cityName,
+                                                  int tracksPerVehicle, int vehiclesPerShard) {
+        List<Integer> vehicleIds = vehicleRepository.findAllByEnterpriseId(enterpriseId).stream()
+                .map(Vehicle::getId)
+                .sorted()
+                .toList();
+        return IntStream.iterate(0, i -> i < vehicleIds.size(), i -> i + vehiclesPerShard)
+                .mapToObj(i -> new GenerationShard(jobId, enterpriseId,
+                        vehicleIds.get(i),
+                        vehicleIds.get(Math.min(i + vehiclesPerShard, vehicleIds.size()) - 1),
+                        cityName, tracksPerVehicle))
+                .toList();
+    }
+}
+
+public interface ShardWorker {
+    int runWorker(String jobId);
+}
+
+@Slf4j
+@Service
+public class ShardWorkerService implements ShardWorker {
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(2);
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final List<GenerationShard.ShardStatus> UNFINISHED_STATUSES =
+            List.of(GenerationShard.ShardStatus.PENDING, GenerationShard.ShardStatus.IN_PROGRESS);
+
+    @Autowired GenerationShardRepository generationShardRepository;
+    @Autowired VehicleRepository vehicleRepository;
+    @Autowired InstantTrackGenerator instantTrackGenerator;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    @Override
+    public int runWorker(String jobId) {
+        String workerId = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+        int processed = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Optional<GenerationShard> shard = claimShard(jobId, workerId);
+            if (shard.isPresent()) {
+                if (processShard(shard.get(), workerId)) {
+                    processed++;
+                } else {
+                    sleep(POLL_INTERVAL);
+                }
+            } else if (generationShardRepository.existsByJobIdAndStatusIn(jobId, UNFINISHED_STATUSES)) {
+                sleep(POLL_INTERVAL);
+            } else {
+                break;
+            }
+        }
+        log.info("Worker {} processed {} shards of job {}", workerId, processed, jobId);
+        return processed;
+    }
+
+    private Optional<GenerationShard> claimShard(String jobId, String workerId) {
+        return transactionTemplate.execute(status -> {
+            Optional<GenerationShard> shard = generationShardRepository.findClaimable(jobId);
+            while (shard.isPresent() && shard.get().getAttempts() >= MAX_ATTEMPTS) {
+                generationShardRepository.fail(shard.get().getId());
+                log.error("Shard {} failed after {} attempts", shard.get().getId(), MAX_ATTEMPTS);
+                shard = generationShardRepository.findClaimable(jobId);
+            }
+            shard.ifPresent(s -> generationShardRepository.claim(s.getId(), workerId, LEASE_DURATION.toSeconds()));
+            return shard;
+        });
+    }
+
+    private boolean processShard(GenerationShard shard, String workerId) {
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        ScheduledFuture<?> heartbeat = heartbeatExecutor.scheduleAtFixedRate(() -> {
+            try {
+                if (generationShardRepository.extendLease(shard.getId(), workerId, LEASE_DURATION.toSeconds()) == 0) {
+                    leaseLost.set(true);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Lease for shard {} cannot be extended by worker {}", shard.getId(), workerId, e);
+                leaseLost.set(true);
+            }
+        }, HEARTBEAT_INTERVAL.toMillis(), HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            TrackProfile profile = TrackProfile.ofCity(City.fromName(shard.getCityName()));
+            List<Vehicle> vehicles = vehicleRepository.findAllByEnterpriseIdAndIdBetween(
+                    shard.getEnterpriseId(), shard.getMinVehicleId(), shard.getMaxVehicleId());
+            for (Vehicle vehicle : vehicles) {
+                if (leaseLost.get()) {
+                    log.warn("Lease for shard {} is lost by worker {}", shard.getId(), workerId);
+                    return false;
+                }
+                instantTrackGenerator.generateTracks(vehicle, profile, shard.getTracksPerVehicle(), shard.getGenerationKeyPrefix());
+            }
+            if (generationShardRepository.complete(shard.getId(), workerId) == 1) {
+                log.info("Shard {} is completed by worker {}", shard.getId(), workerId);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Shard {} failed on worker {}, releasing it", shard.getId(), workerId, e);
+            releaseShard(shard, workerId);
+            return false;
+        } finally {
+            heartbeat.cancel(false);
+        }
+    }
+
+    private void releaseShard(GenerationShard shard, String workerId) {
+        try {
+            generationShardRepository.release(shard.getId(), workerId);
+        } catch (RuntimeException e) {
+            log.warn("Shard {} cannot be released by worker {}, it will be reclaimed after lease expiry", shard.getId(), workerId, e);
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        heartbeatExecutor.shutdownNow();
+    }
+}
@@ -1,6 +1,8 @@
 public interface InstantTrackGenerator {
     void generateTrackInstantly(Vehicle vehicle, double[] start, double[] finish, int maxSpeedKmH, LocalDateTime startDate);
     void generateTracksInCity(Integer enterpriseId, String cityName, int num);
+    void generateTracks(Vehicle vehicle, TrackProfile profile, int num);
+    void generateTracks(Vehicle vehicle, TrackProfile profile, int num, String generationKeyPrefix);
 }
 
 public interface RealTimeTrackGenerator {
@@ -11,19 +13,33 @@ public interface RealTimeTrackGenerator {
 @Service
 public class InstantTrackGeneratorService implements InstantTrackGenerator {
 
-    @Autowired RestTemplate restTemplate;
+    @Autowired AdaptiveRouteLimiter routeLimiter;
     @Autowired TrackRepository trackRepository;
     @Autowired VehicleCoordinateRepository vehicleCoordinateRepository;
     @Autowired VehicleRepository vehicleRepository;
+    @Autowired TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
     public void generateTrackInstantly(Vehicle vehicle, double[] start, double[] finish, int maxSpeedKmH, LocalDateTime startDate) {
-        List<LatLng> coordinates = RouteUtil.getRouteFromOpenRoute(restTemplate, start, finish, maxSpeedKmH);
+        generateTrackInstantly(vehicle, start, finish, maxSpeedKmH, startDate, null);
+    }
+
+    private void generateTrackInstantly(Vehicle vehicle, double[] start, double[] finish, int maxSpeedKmH,
+                                        LocalDateTime startDate, String generationKey) {
+        List<LatLng> coordinates = routeLimiter.getRoute(start, finish, maxSpeedKmH);
+        transactionTemplate.executeWithoutResult(status -> saveTrack(vehicle, coordinates, startDate, generationKey));
+    }
 
+    private void saveTrack(Vehicle vehicle, List<LatLng> coordinates, LocalDateTime startDate, String generationKey) {
+        if (generationKey != null && trackRepository.existsByGenerationKey(generationKey)) {
+            log.info("Track {} is already generated", generationKey);
+            return;
+        }
         Track track = new Track();
         track.setVehicle(vehicle);
         track.setStarted(startDate);
+        track.setGenerationKey(generationKey);
 
         List<VehicleCoordinate> vehicleCoordinates = coordinates.stream()
                 .map(latlng -> VehicleCoordinateUtil.createVehicleCoordinate(latlng, vehicle, track))
@@ -31,27 +47,50 @@ public class InstantTrackGeneratorService implements InstantTrackGenerator {
         IntStream.rangeClosed(0, vehicleCoordinates.size() - 1)
                 .forEach(i -> vehicleCoordinates.get(i).setVisited(getVisitedDateForCoordinate(startDate, i)));
 
-        vehicleCoordinateRepository.saveAll(vehicleCoordinates);
-
         LocalDateTime finishDateOfTrack = vehicleCoordinates.get(vehicleCoordinates.size()-1).getVisited();
         track.setFinished(finishDateOfTrack);
+        track.setSummary(TrackSummaryAccumulator.summarize(vehicleCoordinates));
         Track saved = trackRepository.save(track);
+        vehicleCoordinateRepository.saveAll(vehicleCoordinates);
         log.info("Track {} is created", saved.getVehicle().getId());
     }
 
     @Override
     public void generateTracksInCity(Integer enterpriseId, String cityName, int num) {
-        City city = City.fromName(cityName);
+        TrackProfile profile = TrackProfile.ofCity(City.fromName(cityName));
         List<Vehicle> vehicles = vehicleRepository.findAllByEnterpriseId(enterpriseId);
-        vehicles.forEach(v -> IntStream.rangeClosed(1, num).forEach(i -> generateTrackInCity(v, city)));
+        vehicles.forEach(v -> generateTracks(v, profile, num));
     }
 
-    private void generateTrackInCity(Vehicle vehicle, City city){
-        double[] start = new double[]{city.getRandomLon(), city.getRandomLat()};
-        double[] finish = new double[]{city.getRandomLon(), city.getRandomLat()};
-        int maxSpeedKmH = new Random().nextInt(40, 120);
-        var startDate = DateUtil.getRandomStartOfTrack();
-        generateTrackInstantly(vehicle, start, finish, maxSpeedKmH, startDate);
+    @Override
+    public void generateTracks(Vehicle vehicle, TrackProfile profile, int num) {
+        IntStream.rangeClosed(1, num).forEach(i -> generateTrack(vehicle, profile, null));
+    }
+
+    @Override
+    public void generateTracks(Vehicle vehicle, TrackProfile profile, int num, String generationKeyPrefix) {
+        IntStream.rangeClosed(1, num)
+                .mapToObj(i -> String.format("%s:%d:%d", generationKeyPrefix, vehicle.getId(), i))
+                .filter(key -> !trackRepository.existsByGenerationKey(key))
+                .forEach(key -> {
+                    try {
+                        generateTrack(vehicle, profile, key);
+                    } catch (DataIntegrityViolationException e) {
+                        if (!trackRepository.existsByGenerationKey(key)) {
+                            throw e;
+                        }
+                        log.info("Track {} is already generated by another worker", key);
+                    }
+                });
+    }
+
+    private void generateTrack(Vehicle vehicle, TrackProfile profile, String generationKey){
+        TrackArea area = profile.getRandomArea();
+        double[] start = new double[]{area.getRandomLon(), area.getRandomLat()};
+        double[] finish = new double[]{area.getRandomLon(), area.getRandomLat()};
+        int maxSpeedKmH = ThreadLocalRandom.current().nextInt(profile.minSpeedKmH(), profile.maxSpeedKmH());
+        var startDate = DateUtil.generateDate(profile.minStartDate(), profile.maxStartDate());
+        generateTrackInstantly(vehicle, start, finish, maxSpeedKmH, startDate, generationKey);
     }
 
     private LocalDateTime getVisitedDateForCoordinate(LocalDateTime startDate, int i) {
@@ -67,39 +106,44 @@ public class RealTimeTrackGeneratorService implements RealTimeTrackGenerator {
     @Autowired VehicleRepository vehicleRepository;
     @Autowired VehicleCoordinateRepository vehicleCoordinateRepository;
     @Autowired TrackRepository trackRepository;
-    @Autowired RestTemplate restTemplate;
+    @Autowired AdaptiveRouteLimiter routeLimiter;
 
     @Override
     public void generateTrackInRealTime(Vehicle vehicle, double[] start, double[] finish, int maxSpeedKmH, LocalDateTime startDate, int delaySec) {
-        List<LatLng> coordinates = RouteUtil.getRouteFromOpenRoute(restTemplate, start, finish, maxSpeedKmH);
+        List<LatLng> coordinates = routeLimiter.getRoute(start, finish, maxSpeedKmH);
 
         Track track = new Track();
         track.setVehicle(vehicle);
         track.setStarted(startDate);
+        Track saved = trackRepository.save(track);
+        log.info("Track {} is created", saved.getVehicle().getId());
 
+        TrackSummaryAccumulator summaryAccumulator = new TrackSummaryAccumulator();
         Flux.fromStream(coordinates.stream())
                 .delayUntil(d -> Mono.delay(Duration.ofSeconds(delaySec)))
-                .map(latLon -> VehicleCoordinateUtil.createVehicleCoordinate(latLon, vehicle, track))
+                .map(latLon -> VehicleCoordinateUtil.createVehicleCoordinate(latLon, vehicle, saved))
+                .doOnNext(c -> c.setVisited(LocalDateTime.now()))
                 .map(vehicleCoordinateRepository::save)
+                .doOnNext(summaryAccumulator::add)
+                .doOnComplete(() -> {
+                    saved.setFinished(summaryAccumulator.getLastVisited());
+                    saved.setSummary(summaryAccumulator.toSummary());
+                    trackRepository.save(saved);
+                })
                 .log()
                 .subscribe(c -> log.debug(c.toString()));
-
-        long sec = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) + 10L;
-        track.setFinished(LocalDateTime.ofEpochSecond(sec, 0, ZoneOffset.UTC));
-        Track saved = trackRepository.save(track);
-        log.info("Track {} is created", saved.getVehicle().getId());
     }
 }
 
 public class DateUtil {
-    private static final LocalDateTime MIN_DATE_OF_TRACK_2000 = LocalDateTime.of(2000, 1, 1, 0, 0);
-    private static final LocalDateTime MAX_DATE_OF_TRACK_2020 = LocalDateTime.of(2024, 1, 1, 0, 0);
+    public static final LocalDateTime MIN_DATE_OF_TRACK_2000 = LocalDateTime.of(2000, 1, 1, 0, 0);
+    public static final LocalDateTime MAX_DATE_OF_TRACK_2020 = LocalDateTime.of(2024, 1, 1, 0, 0);
 
     public static LocalDateTime getRandomStartOfTrack() {
         return generateDate(MIN_DATE_OF_TRACK_2000, MAX_DATE_OF_TRACK_2020);
     }
 
-    private static LocalDateTime generateDate(LocalDateTime startInclusive, LocalDateTime endExclusive) {
+    public static LocalDateTime generateDate(LocalDateTime startInclusive, LocalDateTime endExclusive) {
         long minDay = startInclusive.toEpochSecond(ZoneOffset.UTC);
         long maxDay = endExclusive.toEpochSecond(ZoneOffset.UTC);
         long randomDay = ThreadLocalRandom.current().nextLong(minDay, maxDay);
@@ -143,6 +187,212 @@ public class RouteUtil {
     }
 }
 
+public record TrackArea(double minLat, double minLon, double maxLat, double maxLon, double weight) {
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    public TrackArea {
+        if (minLat >= maxLat || minLon >= maxLon) {
+            throw new IllegalArgumentException("Область для треков задана некорректно");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Вес области должен быть больше 0");
+        }
+    }
+
+    public static TrackArea ofCity(City city, double weight) {
+        return new TrackArea(city.getMinLat(), city.getMinLon(), city.getMaxLat(), city.getMaxLon(), weight);
+    }
+
+    public static TrackArea around(double lat, double lon, double radiusKm, double weight) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double dLon = radiusKm / (KM_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat)));
+        return new TrackArea(lat - dLat, lon - dLon, lat + dLat, lon + dLon, weight);
+    }
+
+    public double getRandomLat() {
+        return ThreadLocalRandom.current().nextDouble(minLat, maxLat);
+    }
+
+    public double getRandomLon() {
+        return ThreadLocalRandom.current().nextDouble(minLon, maxLon);
+    }
+}
+
+public record TrackProfile(List<TrackArea> areas, int minSpeedKmH, int maxSpeedKmH,
+                           LocalDateTime minStartDate, LocalDateTime maxStartDate) {
+    public static final int MIN_SPEED_KM_H = 40;
+    public static final int MAX_SPEED_KM_H = 120;
+
+    public TrackProfile {
+        if (areas.isEmpty()) {
+            throw new IllegalArgumentException("Не задано ни одной области для треков");
+        }
+        if (minSpeedKmH >= maxSpeedKmH) {
+            throw new IllegalArgumentException("Минимальная скорость должна быть меньше максимальной");
+        }
+        if (!minStartDate.isBefore(maxStartDate)) {
+            throw new IllegalArgumentException("Начало интервала дат должно быть раньше конца");
+        }
+    }
+
+    public static TrackProfile ofCity(City city) {
+        return new TrackProfile(List.of(TrackArea.ofCity(city, 1)), MIN_SPEED_KM_H, MAX_SPEED_KM_H,
+                DateUtil.MIN_DATE_OF_TRACK_2000, DateUtil.MAX_DATE_OF_TRACK_2020);
+    }
+
+    public TrackArea getRandomArea() {
+        double totalWeight = areas.stream().mapToDouble(TrackArea::weight).sum();
+        double random = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (TrackArea area : areas) {
+            random -= area.weight();
+            if (random < 0) {
+                return area;
+            }
+        }
+        return areas.get(areas.size() - 1);
+    }
+}
+
+@Slf4j
+@Component
+public class AdaptiveRouteLimiter {
+    private static final int MIN_LIMIT = 1;
+    private static final int MAX_LIMIT = 200;
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final RestTemplate restTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit = 4;
+    private int inFlight;
+    private int queued;
+    private double baselineLatencyMs;
+    private long startedRequests;
+    private long lastDecreaseAt;
+
+    public AdaptiveRouteLimiter(RestTemplate restTemplate, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        Gauge.builder("route.limiter.limit", this, AdaptiveRouteLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("route.limiter.in-flight", this, AdaptiveRouteLimiter::getInFlight).register(meterRegistry);
+        Gauge.builder("route.limiter.queue", this, AdaptiveRouteLimiter::getQueued).register(meterRegistry);
+    }
+
+    public List<LatLng> getRoute(double[] start, double[] finish, int maxSpeedKmH) {
+        long requestNumber = acquire();
+        long startNanos = System.nanoTime();
+        try {
+            List<LatLng> route = RouteUtil.getRouteFromOpenRoute(restTemplate, start, finish, maxSpeedKmH);
+            onSuccess(requestNumber, (System.nanoTime() - startNanos) / 1_000_000.0);
+            return route;
+        } catch (HttpClientErrorException.TooManyRequests | HttpServerErrorException | ResourceAccessException e) {
+            onOverload(requestNumber);
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long acquire() {
+        lock.lock();
+        try {
+            queued++;
+            try {
+                while (inFlight >= (int) limit) {
+                    released.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return ++startedRequests;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess(long requestNumber, double latencyMs) {
+        lock.lock();
+        try {
+            if (baselineLatencyMs == 0 || latencyMs < baselineLatencyMs) {
+                baselineLatencyMs = latencyMs;
+            } else {
+                baselineLatencyMs += (latencyMs - baselineLatencyMs) * BASELINE_DRIFT;
+            }
+            if (latencyMs > baselineLatencyMs * LATENCY_TOLERANCE) {
+                decrease(requestNumber, LATENCY_BACKOFF_RATIO);
+            } else if (inFlight >= limit / 2) {
+                limit = Math.min(MAX_LIMIT, limit + 1 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onOverload(long requestNumber) {
+        lock.lock();
+        try {
+            if (decrease(requestNumber, BACKOFF_RATIO)) {
+                log.warn("Route provider is overloaded, limit is decreased to {}", (int) limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean decrease(long requestNumber, double ratio) {
+        if (requestNumber <= lastDecreaseAt) {
+            return false;
+        }
+        limit = Math.max(MIN_LIMIT, limit * ratio);
+        lastDecreaseAt = startedRequests;
+        return true;
+    }
+}
+
 public class VehicleCoordinateUtil {
 
     public static VehicleCoordinate createVehicleCoordinate(LatLng latLng, Vehicle vehicle, Track track) {
@@ -194,4 +444,398 @@ enum City {
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Город не найден"));
     }
-}
\ No newline at end of file
+}
+
+public interface FleetSimulator {
+    FleetSimulationReport simulateFleet(List<Integer> enterpriseIds, String cityName, FleetSimulationSettings settings, CoordinateSink sink);
+}
+
+public record FleetSimulationSettings(TrackSource trackSource, double timeCompression, int jitterMs, int pointIntervalSec) {
+
+    public FleetSimulationSettings {
+        if (timeCompression <= 0) {
+            throw new IllegalArgumentException("Коэффициент сжатия времени должен быть больше 0");
+        }
+        if (jitterMs < 0) {
+            throw new IllegalArgumentException("Разброс задержки не может быть отрицательным");
+        }
+        if (pointIntervalSec <= 0) {
+            throw new IllegalArgumentException("Интервал между точками должен быть больше 0");
+        }
+    }
+
+    public enum TrackSource {
+        STORED,
+        ROUTED
+    }
+}
+
+public record FleetSimulationReport(int vehicles, long events, Duration elapsed, double eventsPerSecond, Duration avgLag, Duration maxLag) {
+}
+
+public interface CoordinateSink {
+    void accept(VehicleCoordinate coordinate);
+
+    default void startTrack(Track track) {
+    }
+
+    default void finishTrack(Track track) {
+    }
+
+    default void flush() {
+    }
+}
+
+record ScheduledCoordinate(VehicleCoordinate coordinate, Instant scheduled) {
+}
+
+@Slf4j
+@Service
+public class FleetSimulatorService implements FleetSimulator {
+    private static final int MAX_CONCURRENT_ROUTE_FETCHES = 64;
+
+    @Autowired AdaptiveRouteLimiter routeLimiter;
+    @Autowired VehicleRepository vehicleRepository;
+    @Autowired VehicleCoordinateRepository vehicleCoordinateRepository;
+    @Autowired TrackRepository trackRepository;
+
+    @Override
+    public FleetSimulationReport simulateFleet(List<Integer> enterpriseIds, String cityName, FleetSimulationSettings settings, CoordinateSink sink) {
+        City city = City.fromName(cityName);
+        List<Vehicle> vehicles = enterpriseIds.isEmpty()
+                ? vehicleRepository.findAll()
+                : enterpriseIds.stream().map(vehicleRepository::findAllByEnterpriseId).flatMap(Collection::stream).toList();
+
+        List<List<LatLng>> tracks = Flux.fromIterable(vehicles)
+                .flatMapSequential(v -> Mono.fromCallable(() -> getTrackForVehicle(v, city, settings.trackSource()))
+                        .subscribeOn(Schedulers.boundedElastic()), MAX_CONCURRENT_ROUTE_FETCHES)
+                .collectList()
+                .block();
+
+        List<Integer> replayed = IntStream.range(0, vehicles.size())
+                .filter(i -> !tracks.get(i).isEmpty())
+                .boxed()
+                .toList();
+        Map<Integer, Track> replayTracks = replayed.stream()
+                .collect(Collectors.toMap(i -> i, i -> startTrack(vehicles.get(i), sink)));
+
+        FleetSimulationStats stats = new FleetSimulationStats();
+        Instant simulationStart = Instant.now();
+        Flux.fromIterable(replayed)
+                .flatMap(i -> replayTrack(replayTracks.get(i), tracks.get(i), simulationStart, settings, sink),
+                        Math.max(replayed.size(), 1))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(c -> {
+                    sink.accept(c.coordinate());
+                    stats.register(Duration.between(c.scheduled(), Instant.now()));
+                })
+                .blockLast();
+        sink.flush();
+
+        FleetSimulationReport report = stats.toReport(replayed.size(), Duration.between(simulationStart, Instant.now()));
+        log.info("Fleet simulation finished: {}", report);
+        return report;
+    }
+
+    private List<LatLng> getTrackForVehicle(Vehicle vehicle, City city, FleetSimulationSettings.TrackSource trackSource) {
+        return switch (trackSource) {
+            case STORED -> trackRepository.findFirstByVehicleIdOrderByStartedDesc(vehicle.getId())
+                    .map(t -> vehicleCoordinateRepository.findAllByTrackIdOrderByVisited(t.getId()))
+                    .orElse(List.of())
+                    .stream()
+                    .map(c -> new LatLng(c.getLat(), c.getLon()))
+                    .toList();
+            case ROUTED -> getRoute(TrackProfile.ofCity(city));
+        };
+    }
+
+    private List<LatLng> getRoute(TrackProfile profile) {
+        TrackArea area = profile.getRandomArea();
+        return routeLimiter.getRoute(
+                new double[]{area.getRandomLon(), area.getRandomLat()},
+                new double[]{area.getRandomLon(), area.getRandomLat()},
+                ThreadLocalRandom.current().nextInt(profile.minSpeedKmH(), profile.maxSpeedKmH()));
+    }
+
+    private Track startTrack(Vehicle vehicle, CoordinateSink sink) {
+        Track track = new Track();
+        track.setVehicle(vehicle);
+        track.setStarted(LocalDateTime.now());
+        sink.startTrack(track);
+        return track;
+    }
+
+    private Flux<ScheduledCoordinate> replayTrack(Track track, List<LatLng> coordinates, Instant simulationStart,
+                                                  FleetSimulationSettings settings, CoordinateSink sink) {
+        double intervalNanos = settings.pointIntervalSec() * 1_000_000_000.0 / settings.timeCompression();
+        TrackSummaryAccumulator summaryAccumulator = new TrackSummaryAccumulator();
+
+        Flux<ScheduledCoordinate> replay = Flux.range(0, coordinates.size())
+                .concatMap(i -> {
+                    Instant scheduled = simulationStart.plusNanos(Math.round(intervalNanos * i))
+                            .plusMillis(getJitterMs(settings.jitterMs()));
+                    Duration delay = Duration.between(Instant.now(), scheduled);
+                    return Mono.delay(delay.isNegative() ? Duration.ZERO : delay)
+                            .map(d -> {
+                                VehicleCoordinate coordinate = VehicleCoordinateUtil.createVehicleCoordinate(coordinates.get(i), track.getVehicle(), track);
+                                coordinate.setVisited(LocalDateTime.now());
+                                summaryAccumulator.add(coordinate);
+                                return new ScheduledCoordinate(coordinate, scheduled);
+                            });
+                })
+                .onBackpressureBuffer();
+        Mono<ScheduledCoordinate> finishTrack = Mono.<ScheduledCoordinate>fromRunnable(() -> {
+                    track.setFinished(summaryAccumulator.getLastVisited());
+                    track.setSummary(summaryAccumulator.toSummary());
+                    sink.finishTrack(track);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return replay.concatWith(finishTrack);
+    }
+
+    private long getJitterMs(int jitterMs) {
+        return jitterMs == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1L);
+    }
+}
+
+class FleetSimulationStats {
+    private final LongAdder events = new LongAdder();
+    private final LongAdder totalLagMs = new LongAdder();
+    private final LongAccumulator maxLagMs = new LongAccumulator(Long::max, 0);
+
+    void register(Duration lag) {
+        long lagMs = Math.max(lag.toMillis(), 0);
+        events.increment();
+        totalLagMs.add(lagMs);
+        maxLagMs.accumulate(lagMs);
+    }
+
+    FleetSimulationReport toReport(int vehicles, Duration elapsed) {
+        long count = events.sum();
+        double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+        Duration avgLag = Duration.ofMillis(count == 0 ? 0 : totalLagMs.sum() / count);
+        return new FleetSimulationReport(vehicles, count, elapsed, count / seconds, avgLag, Duration.ofMillis(maxLagMs.get()));
+    }
+}
+
+public class DbCoordinateSink implements CoordinateSink {
+    private static final int BATCH_SIZE = 1000;
+
+    private final VehicleCoordinateRepository vehicleCoordinateRepository;
+    private final TrackRepository trackRepository;
+    private final List<VehicleCoordinate> batch = new ArrayList<>(BATCH_SIZE);
+
+    public DbCoordinateSink(VehicleCoordinateRepository vehicleCoordinateRepository, TrackRepository trackRepository) {
+        this.vehicleCoordinateRepository = vehicleCoordinateRepository;
+        this.trackRepository = trackRepository;
+    }
+
+    @Override
+    public synchronized void startTrack(Track track) {
+        trackRepository.save(track);
+    }
+
+    @Override
+    public synchronized void finishTrack(Track track) {
+        trackRepository.save(track);
+    }
+
+    @Override
+    public synchronized void accept(VehicleCoordinate coordinate) {
+        batch.add(coordinate);
+        if (batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        vehicleCoordinateRepository.saveAll(batch);
+        batch.clear();
+    }
+}
+
+public class QueueCoordinateSink implements CoordinateSink {
+    private final BlockingQueue<VehicleCoordinate> queue;
+
+    public QueueCoordinateSink(BlockingQueue<VehicleCoordinate> queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void accept(VehicleCoordinate coordinate) {
+        try {
+            queue.put(coordinate);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
+
+public class StreamCoordinateSink implements CoordinateSink {
+    private final BufferedWriter writer;
+
+    public StreamCoordinateSink(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized void accept(VehicleCoordinate coordinate) {
+        try {
+            writer.write(String.format(Locale.ROOT, "%d;%f;%f;%s%n",
+                    coordinate.getVehicle().getId(), coordinate.getLat(), coordinate.getLon(), coordinate.getVisited()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class Track {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "vehicle_id")
+    private Vehicle vehicle;
+    private LocalDateTime started;
+    private LocalDateTime finished;
+    @Embedded
+    private TrackSummary summary;
+    @Column(unique = true)
+    private String generationKey;
+}
+
+public interface TrackRepository extends JpaRepository<Track, Integer> {
+
+    boolean existsByGenerationKey(String generationKey);
+
+    Optional<Track> findFirstByVehicleIdOrderByStartedDesc(Integer vehicleId);
+
+    List<Track> findAllBySummaryIsNullAndIdGreaterThanOrderById(Integer id, Pageable pageable);
+}
+
+public interface VehicleCoordinateRepository extends JpaRepository<VehicleCoordinate, Integer> {
+
+    List<VehicleCoordinate> findAllByTrackIdOrderByVisited(Integer trackId);
+}
+
+public interface VehicleRepository extends JpaRepository<Vehicle, Integer> {
+
+    List<Vehicle> findAllByEnterpriseId(Integer enterpriseId);
+
+    List<Vehicle> findAllByEnterpriseIdAndIdBetween(Integer enterpriseId, Integer minId, Integer maxId);
+}
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackSummary {
+    private double distanceKm;
+    private double maxSpeedKmH;
+    private double avgSpeedKmH;
+    private int pointCount;
+    private double minLat;
+    private double minLon;
+    private double maxLat;
+    private double maxLon;
+}
+
+public class TrackSummaryAccumulator {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private VehicleCoordinate previous;
+    private LocalDateTime first;
+    private double distanceKm;
+    private double maxSpeedKmH;
+    private int pointCount;
+    private double minLat = Double.MAX_VALUE;
+    private double minLon = Double.MAX_VALUE;
+    private double maxLat = -Double.MAX_VALUE;
+    private double maxLon = -Double.MAX_VALUE;
+
+    public static TrackSummary summarize(List<VehicleCoordinate> coordinates) {
+        TrackSummaryAccumulator accumulator = new TrackSummaryAccumulator();
+        coordinates.forEach(accumulator::add);
+        return accumulator.toSummary();
+    }
+
+    public void add(VehicleCoordinate coordinate) {
+        if (previous == null) {
+            first = coordinate.getVisited();
+        } else {
+            double segmentKm = getDistanceKm(previous, coordinate);
+            distanceKm += segmentKm;
+            double segmentHours = Duration.between(previous.getVisited(), coordinate.getVisited()).toMillis() / 3_600_000.0;
+            if (segmentHours > 0) {
+                maxSpeedKmH = Math.max(maxSpeedKmH, segmentKm / segmentHours);
+            }
+        }
+        minLat = Math.min(minLat, coordinate.getLat());
+        minLon = Math.min(minLon, coordinate.getLon());
+        maxLat = Math.max(maxLat, coordinate.getLat());
+        maxLon = Math.max(maxLon, coordinate.getLon());
+        pointCount++;
+        previous = coordinate;
+    }
+
+    public LocalDateTime getLastVisited() {
+        return previous == null ? null : previous.getVisited();
+    }
+
+    public TrackSummary toSummary() {
+        if (pointCount == 0) {
+            return new TrackSummary(0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        double totalHours = Duration.between(first, previous.getVisited()).toMillis() / 3_600_000.0;
+        double avgSpeedKmH = totalHours > 0 ? distanceKm / totalHours : 0;
+        return new TrackSummary(distanceKm, maxSpeedKmH, avgSpeedKmH, pointCount, minLat, minLon, maxLat, maxLon);
+    }
+
+    private static double getDistanceKm(VehicleCoordinate from, VehicleCoordinate to) {
+        double dLat = Math.toRadians(to.getLat() - from.getLat());
+        double dLon = Math.toRadians(to.getLon() - from.getLon());
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(from.getLat())) * Math.cos(Math.toRadians(to.getLat())) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
+
+@Slf4j
+@Service
+public class TrackSummaryBackfillService {
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired TrackRepository trackRepository;
+    @Autowired VehicleCoordinateRepository vehicleCoordinateRepository;
+
+    public void backfillSummaries() {
+        List<Track> tracks = trackRepository.findAllBySummaryIsNullAndIdGreaterThanOrderById(0, PageRequest.of(0, PAGE_SIZE));
+        int total = 0;
+        while (!tracks.isEmpty()) {
+            tracks.forEach(t -> t.setSummary(TrackSummaryAccumulator.summarize(
+                    vehicleCoordinateRepository.findAllByTrackIdOrderByVisited(t.getId()))));
+            trackRepository.saveAll(tracks);
+            total += tracks.size();
+            log.info("Summaries are computed for {} tracks", total);
+            Integer lastId = tracks.get(tracks.size() - 1).getId();
+            tracks = trackRepository.findAllBySummaryIsNullAndIdGreaterThanOrderById(lastId, PageRequest.of(0, PAGE_SIZE));
+        }
+    }
+}
@@ -1,5 +1,19 @@
 public interface VehicleGenerator {
     void generateVehiclesForEnterprises(List<Integer> enterpriseIds, int numVehicles);
+    List<Vehicle> generateVehiclesForEnterprise(Integer enterpriseId, int numVehicles, DriverProfile driverProfile);
+}
+
+public record DriverProfile(int maxDriversPerVehicle, double activeDriverProbability) {
+    public static final DriverProfile DEFAULT = new DriverProfile(1, 0.1);
+
+    public DriverProfile {
+        if (maxDriversPerVehicle < 0) {
+            throw new IllegalArgumentException("Максимальное количество водителей не может быть отрицательным");
+        }
+        if (activeDriverProbability < 0 || activeDriverProbability > 1) {
+            throw new IllegalArgumentException("Вероятность активного водителя должна быть от 0 до 1");
+        }
+    }
 }
 
 public class VehicleGeneratorServiceNew implements VehicleGenerator {
@@ -18,17 +32,23 @@ public class VehicleGeneratorServiceNew implements VehicleGenerator {
     public void generateVehiclesForEnterprises(List<Integer> enterpriseIds, int numVehicles) {
         List<Vehicle> vehicles = enterpriseIds.stream()
                 .map(e -> enterpriseRepository.findById(e).orElseThrow())
-                .map(e -> generateVehiclesForEnterprise(e, numVehicles))
+                .map(e -> generateVehiclesForEnterprise(e, numVehicles, DriverProfile.DEFAULT))
                 .flatMap(Collection::stream).toList();
         vehicleRepository.saveAll(vehicles);
     }
 
-    private List<Vehicle> generateVehiclesForEnterprise(Enterprise enterprise, int numVehicles) {
+    @Override
+    public List<Vehicle> generateVehiclesForEnterprise(Integer enterpriseId, int numVehicles, DriverProfile driverProfile) {
+        Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow();
+        return vehicleRepository.saveAll(generateVehiclesForEnterprise(enterprise, numVehicles, driverProfile));
+    }
+
+    private List<Vehicle> generateVehiclesForEnterprise(Enterprise enterprise, int numVehicles, DriverProfile driverProfile) {
         return IntStream.rangeClosed(0, numVehicles-1)
-                .mapToObj(i -> generateVehicle(enterprise))
+                .mapToObj(i -> generateVehicle(enterprise, driverProfile))
                 .toList();
     }
-    private Vehicle generateVehicle(Enterprise enterprise) {
+    private Vehicle generateVehicle(Enterprise enterprise, DriverProfile driverProfile) {
         Vehicle vehicle = new Vehicle();
         vehicle.setVehicleModel(RandomVehicleUtil.getVehicleModel(vehicleModels));
         vehicle.setVin(RandomVehicleUtil.generateVin());
@@ -38,17 +58,16 @@ public class VehicleGeneratorServiceNew implements VehicleGenerator {
         vehicle.setProductionYear(DateUtil.getRandomProductionYear());
         vehicle.setEnterprise(enterprise);
         vehicle.setPurchaseDate(DateUtil.getRandomPurchaseDate());
-        List<Driver> drivers = RandomDriverUtil.getDrivers(enterprise, vehicle, RandomDriverUtil.getIsDriverActive());
+        List<Driver> drivers = RandomDriverUtil.getDrivers(enterprise, vehicle,
+                RandomDriverUtil.getIsDriverActive(driverProfile.activeDriverProbability()), driverProfile.maxDriversPerVehicle());
         vehicle.setDrivers(drivers);
         drivers.forEach(d -> d.setVehicle(vehicle));
         return vehicle;
     }
 }
 class RandomDriverUtil {
-    private static final int MAX_NUM_DRIVERS_FOR_VEHICLE = 2;
-
-    public static List<Driver> getDrivers(Enterprise enterprise, Vehicle vehicle, boolean isActive) {
-        int numDrivers = new Random().nextInt(0, MAX_NUM_DRIVERS_FOR_VEHICLE);
+    public static List<Driver> getDrivers(Enterprise enterprise, Vehicle vehicle, boolean isActive, int maxNumDrivers) {
+        int numDrivers = new Random().nextInt(0, maxNumDrivers + 1);
         return IntStream.rangeClosed(0, numDrivers-1)
                 .mapToObj(i -> getDriver(enterprise, vehicle, isActive))
                 .toList();
@@ -78,9 +97,8 @@ class RandomDriverUtil {
         return new Random().nextInt(2, 41);
     }
 
-    public static boolean getIsDriverActive() {
-        int randomIndex = new Random().nextInt(1, 11);
-        return randomIndex == 10;
+    public static boolean getIsDriverActive(double probability) {
+        return new Random().nextDouble() < probability;
     }
 }
 